@@ -0,0 +1,435 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of playlists conversion.
+ * For each corpus size generates seeded synthetic corpus (once, reused by next runs),
+ * converts it in several fresh JVMs cold and warm, appends median results to CSV file
+ * and checks them against stored baseline.
+ * Throughput is counted only by files in correct format, files with a wrong line are left out.
+ * Before compare baseline throughput is scaled by ratio of calibration speed measured right after current
+ * and baseline runs, for results measured on different machines or under different load can be compared.
+ *
+ * Parameters are passed by system properties, see constants PROP_*.
+ * Exit code is 1 if any result is worse than baseline more than allowed tolerance.
+ */
+public class Benchmark {
+
+	/**
+	 * Directory for generated corpora and output labels file.
+	 */
+	public static final String PROP_DIR = "bench.dir";
+
+	/**
+	 * CSV file where results are appended.
+	 */
+	public static final String PROP_RESULTS = "bench.results";
+
+	/**
+	 * CSV file with baseline results.
+	 */
+	public static final String PROP_BASELINE = "bench.baseline";
+
+	/**
+	 * Comma separated corpus sizes: small, medium, large.
+	 */
+	public static final String PROP_SIZES = "bench.sizes";
+
+	public static final String PROP_SEED = "bench.seed";
+
+	/**
+	 * Allowed relative difference with baseline, for example 0.25 - 25 %.
+	 */
+	public static final String PROP_TOLERANCE = "bench.tolerance";
+
+	/**
+	 * If <tt>true</tt> baseline is overwritten by current results instead of check.
+	 */
+	public static final String PROP_UPDATE_BASELINE = "bench.updateBaseline";
+
+	public static final String PROP_WARM_UP_PASSES = "bench.warmUpPasses";
+
+	/**
+	 * Min time of warm passes in each JVM (in milliseconds).
+	 */
+	public static final String PROP_MIN_WARM_TIME_MS = "bench.minWarmTimeMs";
+
+	/**
+	 * Heap size of JVM where conversion is run (used for both min and max heap, with serial GC).
+	 */
+	public static final String PROP_RUN_XMX = "bench.runXmx";
+
+	private static final String RESULTS_HEADER = "date,version,corpus,run,files,lines,megabytes,seconds,"
+		+ "files_per_s,lines_per_s,mb_per_s,peak_rss_mb,gc_ms,failed_files,calibration_per_s";
+
+	private static final String BASELINE_HEADER = "corpus,run,lines_per_s,mb_per_s,peak_rss_mb,calibration_per_s";
+
+	private static final double MB = 1024 * 1024;
+
+	private static final long CALIBRATION_TIME_NS = TimeUnit.SECONDS.toNanos(1);
+	private static final int CALIBRATION_SIZE = 100000;
+
+	/**
+	 * Sizes of corpora: small and medium contain many files of real playlists size,
+	 * large contains multi-gigabyte total of big files.
+	 * Cold pass is short for small corpora, so they are run in more JVMs.
+	 */
+	public enum CorpusSize {
+		SMALL(200, 8 * 1024, 5),
+		MEDIUM(400, 256 * 1024, 3),
+		LARGE(64, 32 * 1024 * 1024, 1);
+
+		private final int files;
+		private final long fileBytes;
+		private final int forks;
+
+		CorpusSize(int files, long fileBytes, int forks) {
+			this.files = files;
+			this.fileBytes = fileBytes;
+			this.forks = forks;
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		File dir = new File(System.getProperty(PROP_DIR, "build/benchmark"));
+		File results = new File(System.getProperty(PROP_RESULTS, new File(dir, "results.csv").getPath()));
+		File baseline = new File(System.getProperty(PROP_BASELINE, "src/benchmark/resources/baseline.csv"));
+		String sizes = System.getProperty(PROP_SIZES, "small,medium,large");
+		long seed = Long.parseLong(System.getProperty(PROP_SEED, "42"));
+		double tolerance = Double.parseDouble(System.getProperty(PROP_TOLERANCE, "0.25"));
+		boolean updateBaseline = Boolean.parseBoolean(System.getProperty(PROP_UPDATE_BASELINE, "false"));
+		int warmUpPasses = Integer.parseInt(System.getProperty(PROP_WARM_UP_PASSES, "2"));
+		String runXmx = System.getProperty(PROP_RUN_XMX, "1g");
+		long minWarmTimeMs = Long.parseLong(System.getProperty(PROP_MIN_WARM_TIME_MS, "2000"));
+
+		String date = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date());
+		List<Result> current = new ArrayList<>();
+		for (String sizeName : sizes.split(",")) {
+			CorpusSize size = CorpusSize.valueOf(sizeName.trim().toUpperCase(Locale.ROOT));
+			String corpusName = size.name().toLowerCase(Locale.ROOT);
+
+			Util.print("Generating corpus " + corpusName + " (seed " + seed + ")...");
+			CorpusGenerator.Corpus corpus = CorpusGenerator.generate(
+				new File(dir, "corpus-" + corpusName + "-" + seed), seed, size.files, size.fileBytes);
+
+			Util.print("Converting corpus " + corpusName + ": " + corpus.getFiles() + " files ("
+				+ corpus.getErrorFiles() + " with error), " + corpus.getLines() + " lines, "
+				+ format(corpus.getBytes() / MB) + " MB, in " + size.forks + " JVMs...");
+			Map<String, List<Result>> forkResults = new LinkedHashMap<>();
+			for (int i = 0; i < size.forks; i++) {
+				for (Result result : run(corpus, corpusName, new File(dir, "audacity-labels"), warmUpPasses, minWarmTimeMs, runXmx)) {
+					if (! forkResults.containsKey(result.run)) forkResults.put(result.run, new ArrayList<Result>());
+					forkResults.get(result.run).add(result);
+				}
+			}
+			for (List<Result> runResults : forkResults.values()) {
+				Result result = median(runResults);
+				result.date = date;
+				Util.print(result.toString());
+				current.add(result);
+			}
+		}
+
+		appendResults(results, current);
+		Util.print("Results appended to " + results);
+
+		if (updateBaseline) {
+			writeBaseline(baseline, current);
+			Util.print("Baseline updated: " + baseline);
+			return;
+		}
+
+		if (! checkBaseline(baseline, current, tolerance)) System.exit(1);
+	}
+
+	/**
+	 * @return result with median time.
+	 */
+	private static Result median(List<Result> results) {
+		List<Result> sorted = new ArrayList<>(results);
+		Collections.sort(sorted, new Comparator<Result>() {
+			@Override
+			public int compare(Result r1, Result r2) {
+				return Double.compare(r1.seconds, r2.seconds);
+			}
+		});
+		return sorted.get(sorted.size() / 2);
+	}
+
+	/**
+	 * Convert corpus in fresh JVM.
+	 *
+	 * @return results of cold and warm passes.
+	 */
+	private static List<Result> run(CorpusGenerator.Corpus corpus, String corpusName, File labelsFile,
+									int warmUpPasses, long minWarmTimeMs, String runXmx) throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		// GC and heap are pinned, otherwise JVM chooses them by hardware and peak RSS is not comparable with baseline
+		ProcessBuilder pb = new ProcessBuilder(java, "-XX:+UseSerialGC", "-Xms" + runXmx, "-Xmx" + runXmx,
+			"-cp", System.getProperty("java.class.path"), BenchmarkRun.class.getName(),
+			corpus.getDir().getAbsolutePath(), labelsFile.getAbsolutePath(), String.valueOf(warmUpPasses),
+			String.valueOf(minWarmTimeMs));
+		pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process process = pb.start();
+
+		List<Result> results = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (! line.startsWith(BenchmarkRun.RESULT)) {
+					Util.print(line);
+					continue;
+				}
+				String[] spl = line.split("\t");
+				Result result = new Result();
+				result.corpus = corpusName;
+				result.run = spl[1];
+				result.files = corpus.getFiles() - corpus.getErrorFiles();
+				result.lines = corpus.getValidLines();
+				result.megabytes = corpus.getValidBytes() / MB;
+				result.seconds = Long.parseLong(spl[2]) / 1e9;
+				result.failedFiles = Integer.parseInt(spl[3]);
+				if (result.failedFiles != corpus.getErrorFiles()) {
+					throw new IOException("Corpus " + corpusName + " contains " + corpus.getErrorFiles()
+						+ " files with error, but " + result.failedFiles + " files failed.");
+				}
+				result.gcMs = Long.parseLong(spl[4]);
+				long rssKb = Long.parseLong(spl[5]);
+				result.peakRssMb = rssKb < 0 ? -1 : rssKb / 1024.0;
+				results.add(result);
+			}
+		}
+
+		int exitCode = process.waitFor();
+		if (exitCode != 0) throw new IOException("Benchmark run of corpus " + corpusName + " failed with exit code " + exitCode);
+
+		double calibration = calibrate();
+		for (Result result : results) result.calibration = calibration;
+		return results;
+	}
+
+	/**
+	 * Measure speed of this machine by fixed work, right after benchmark run.
+	 * It is run in this JVM, which state does not depend on corpus size, after warm up of the same time.
+	 *
+	 * @return median speed of calibration work (iterations per second).
+	 */
+	private static double calibrate() {
+		long checksum = 0;
+		long warmUpEnd = System.nanoTime() + CALIBRATION_TIME_NS;
+		while (System.nanoTime() < warmUpEnd) checksum += calibrationWork();
+
+		List<Long> elapsed = new ArrayList<>();
+		long total = 0;
+		while (total < CALIBRATION_TIME_NS) {
+			long start = System.nanoTime();
+			checksum += calibrationWork();
+			long time = System.nanoTime() - start;
+			elapsed.add(time);
+			total += time;
+		}
+		if (checksum == 42) Util.print("");	// use result, for JIT not removes the work
+
+		Collections.sort(elapsed);
+		return 1e9 / elapsed.get(elapsed.size() / 2);
+	}
+
+	/**
+	 * Fixed work similar to conversion (building and hashing strings, allocation, sort),
+	 * but using only JDK code, for changes of app code not change calibration.
+	 */
+	private static long calibrationWork() {
+		Random random = new Random(42);
+		long[] values = new long[CALIBRATION_SIZE];
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			sb.setLength(0);
+			sb.append(random.nextInt(60)).append(':').append(random.nextInt(60)).append('\t').append(i).append(". track");
+			values[i] = sb.toString().hashCode() * 31L + random.nextInt();
+		}
+		Arrays.sort(values);
+		return values[values.length / 2];
+	}
+
+	private static void appendResults(File file, List<Result> results) throws IOException {
+		boolean isNew = ! file.exists();
+		if (file.getParentFile() != null) file.getParentFile().mkdirs();
+
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8")) {
+			if (isNew) writer.write(RESULTS_HEADER + "\n");
+			for (Result result : results) {
+				writer.write(result.toCsv() + "\n");
+			}
+		}
+	}
+
+	private static void writeBaseline(File file, List<Result> results) throws IOException {
+		Map<String, Result> merged = new LinkedHashMap<>();
+		for (Result result : readBaseline(file).values()) merged.put(result.key(), result);
+		for (Result result : results) {
+			result.baseLinesPerSec = result.linesPerSec();
+			result.baseMbPerSec = result.mbPerSec();
+			merged.put(result.key(), result);
+		}
+
+		if (file.getParentFile() != null) file.getParentFile().mkdirs();
+
+		StringBuilderCLI sb = new StringBuilderCLI();
+		sb.append(BASELINE_HEADER);
+		for (Result result : merged.values()) {
+			sb.append(result.corpus + "," + result.run + "," + format(result.baseLinesPerSec) + ","
+				+ format(result.baseMbPerSec) + "," + format(result.peakRssMb) + "," + format(result.calibration));
+		}
+		Util.writeToFile(file.getPath(), sb.toString());
+	}
+
+	private static Map<String, Result> readBaseline(File file) throws IOException {
+		Map<String, Result> baseline = new LinkedHashMap<>();
+		if (! file.isFile()) return baseline;
+
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+			if (! BASELINE_HEADER.equals(br.readLine())) {
+				Util.print("Baseline " + file + " is in old format, ignored.");
+				return baseline;
+			}
+
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.trim().isEmpty()) continue;
+
+				String[] spl = line.split(",");
+				Result result = new Result();
+				result.corpus = spl[0];
+				result.run = spl[1];
+				result.baseLinesPerSec = Double.parseDouble(spl[2]);
+				result.baseMbPerSec = Double.parseDouble(spl[3]);
+				result.peakRssMb = Double.parseDouble(spl[4]);
+				result.calibration = Double.parseDouble(spl[5]);
+				baseline.put(result.key(), result);
+			}
+		}
+		return baseline;
+	}
+
+	/**
+	 * Compare results with baseline: throughput must not be lower and peak RSS must not be higher
+	 * than baseline more than given tolerance. Baseline throughput is scaled by calibration speed.
+	 *
+	 * @return <tt>true</tt> if all results are within tolerance, otherwise <tt>false</tt>.
+	 */
+	private static boolean checkBaseline(File file, List<Result> results, double tolerance) throws IOException {
+		Map<String, Result> baseline = readBaseline(file);
+		boolean isPassed = true;
+		for (Result result : results) {
+			Result base = baseline.get(result.key());
+			if (base == null) {
+				Util.print("No baseline for " + result.key() + ", skipped.");
+				continue;
+			}
+
+			double scale = result.calibration / base.calibration;
+			Util.print("Calibration " + result.key() + ": " + format(result.calibration) + "/s (baseline "
+				+ format(base.calibration) + "/s), baseline throughput scaled by " + format(scale));
+			isPassed &= checkMin(result.key() + " lines/s", result.linesPerSec(), base.baseLinesPerSec * scale, tolerance);
+			isPassed &= checkMin(result.key() + " MB/s", result.mbPerSec(), base.baseMbPerSec * scale, tolerance);
+			if (result.peakRssMb >= 0 && base.peakRssMb >= 0) {
+				isPassed &= checkMax(result.key() + " peak RSS MB", result.peakRssMb, base.peakRssMb, tolerance);
+			}
+		}
+		return isPassed;
+	}
+
+	private static boolean checkMin(String name, double value, double base, double tolerance) {
+		double threshold = base * (1 - tolerance);
+		boolean isPassed = value >= threshold;
+		Util.print((isPassed ? "OK   " : "FAIL ") + name + ": " + format(value) + " (baseline " + format(base)
+			+ ", min " + format(threshold) + ")");
+		return isPassed;
+	}
+
+	private static boolean checkMax(String name, double value, double base, double tolerance) {
+		double threshold = base * (1 + tolerance);
+		boolean isPassed = value <= threshold;
+		Util.print((isPassed ? "OK   " : "FAIL ") + name + ": " + format(value) + " (baseline " + format(base)
+			+ ", max " + format(threshold) + ")");
+		return isPassed;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.2f", value);
+	}
+
+
+	/**
+	 * Result of one pass over corpus, only by files in correct format.
+	 */
+	private static class Result {
+		String date;
+		String corpus;
+		String run;
+		int files;
+		long lines;
+		double megabytes;
+		double seconds;
+		int failedFiles;
+		long gcMs;
+		double peakRssMb;
+
+		/**
+		 * Calibration speed of machine right after result was measured (iterations per second).
+		 */
+		double calibration;
+
+		/**
+		 * Throughput values of baseline file.
+		 */
+		double baseLinesPerSec;
+		double baseMbPerSec;
+
+		String key() {
+			return corpus + "/" + run;
+		}
+
+		double linesPerSec() {
+			return lines / seconds;
+		}
+
+		double mbPerSec() {
+			return megabytes / seconds;
+		}
+
+		String toCsv() {
+			return date + "," + App.VER + "," + corpus + "," + run + "," + files + "," + lines + ","
+				+ format(megabytes) + "," + String.format(Locale.ROOT, "%.3f", seconds) + ","
+				+ format(files / seconds) + "," + format(linesPerSec()) + "," + format(mbPerSec()) + ","
+				+ format(peakRssMb) + "," + gcMs + "," + failedFiles + "," + format(calibration);
+		}
+
+		@Override
+		public String toString() {
+			return key() + ": " + String.format(Locale.ROOT, "%.3f", seconds) + " s, "
+				+ format(files / seconds) + " files/s, " + format(linesPerSec()) + " lines/s, "
+				+ format(mbPerSec()) + " MB/s, peak RSS " + format(peakRssMb) + " MB, GC " + gcMs + " ms, "
+				+ failedFiles + " failed files";
+		}
+	}
+}
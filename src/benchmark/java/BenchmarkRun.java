@@ -0,0 +1,139 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * One benchmark run in fresh JVM: converts all playlists of corpus by full {@link App} path.
+ * First pass is cold (classes are loaded and code is interpreted), then goes warm up passes
+ * and then warm passes are repeated at least given time, for median of them is not noise of one short pass.
+ *
+ * Only conversion of playlists in correct format is timed: playlist in wrong format is read
+ * only till the wrong line, so it is left out of throughput.
+ *
+ * For each measured run prints line to standard output:
+ * RESULT [TAB] run [TAB] elapsed nanoseconds of one pass [TAB] failed files [TAB] GC time ms of one pass [TAB] peak RSS kB
+ */
+public class BenchmarkRun {
+
+	public static final String RESULT = "RESULT";
+	public static final String RUN_COLD = "cold";
+	public static final String RUN_WARM = "warm";
+
+	/**
+	 * Arguments:
+	 * arg 0 - corpus directory.
+	 * arg 1 - output labels file, overwritten for each playlist.
+	 * arg 2 - count of warm up passes between cold and warm passes.
+	 * arg 3 - min time of warm passes (in milliseconds).
+	 */
+	public static void main(String[] args) throws IOException {
+		File corpusDir = new File(args[0]);
+		String labelsFile = args[1];
+		int warmUpPasses = Integer.parseInt(args[2]);
+		long minWarmTimeNs = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[3]));
+
+		List<String> playlists = listPlaylists(corpusDir);
+
+		long gcStart = gcTimeMs();
+		Pass cold = convertAll(playlists, labelsFile);
+		print(RUN_COLD, cold.elapsed, cold.failed, gcTimeMs() - gcStart);
+
+		for (int i = 0; i < warmUpPasses; i++) convertAll(playlists, labelsFile);
+
+		List<Long> elapsed = new ArrayList<>();
+		long total = 0;
+		Pass warm;
+		gcStart = gcTimeMs();
+		do {
+			warm = convertAll(playlists, labelsFile);
+			elapsed.add(warm.elapsed);
+			total += warm.elapsed;
+		} while (total < minWarmTimeNs);
+		long gc = (gcTimeMs() - gcStart) / elapsed.size();
+
+		Collections.sort(elapsed);
+		print(RUN_WARM, elapsed.get(elapsed.size() / 2), warm.failed, gc);
+	}
+
+	private static void print(String run, long elapsed, int failed, long gc) {
+		Util.print(RESULT + "\t" + run + "\t" + elapsed + "\t" + failed + "\t" + gc + "\t" + peakRssKb());
+	}
+
+	/**
+	 * Convert all playlists once.
+	 *
+	 * @return time of conversion of playlists in correct format and count of playlists in wrong format.
+	 */
+	private static Pass convertAll(List<String> playlists, String labelsFile) {
+		Pass pass = new Pass();
+		for (String playlist : playlists) {
+			long start = System.nanoTime();
+			try {
+				App.convert(playlist, labelsFile);
+				pass.elapsed += System.nanoTime() - start;
+			} catch (DataFormatException e) {
+				pass.failed++;
+			}
+		}
+		return pass;
+	}
+
+	private static List<String> listPlaylists(File corpusDir) throws IOException {
+		File[] files = corpusDir.listFiles();
+		if (files == null) throw new IOException("Corpus directory " + corpusDir + " not found.");
+
+		List<String> playlists = new ArrayList<>();
+		for (File file : files) {
+			if (file.isFile() && ! file.getName().equals(CorpusGenerator.MANIFEST)) playlists.add(file.getAbsolutePath());
+		}
+		Collections.sort(playlists);
+		return playlists;
+	}
+
+	private static long gcTimeMs() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * Peak resident set size of this process since start (VmHWM, available only on Linux).
+	 *
+	 * @return peak RSS in kB, or -1 if not available.
+	 */
+	private static long peakRssKb() {
+		File status = new File("/proc/self/status");
+		if (! status.isFile()) return -1;
+
+		try (BufferedReader br = new BufferedReader(new FileReader(status))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.startsWith("VmHWM:")) {
+					return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			e.printStackTrace();
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Result of one pass over all playlists.
+	 */
+	private static class Pass {
+		long elapsed;
+		int failed;
+	}
+}
@@ -0,0 +1,312 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Generator of synthetic playlists corpus for end-to-end benchmark.
+ * Same seed and sizes always give the same corpus.
+ *
+ * Generated playlists look like real ones: track names of different length,
+ * part of titles in Unicode, comments in single lines and after track names,
+ * and some files contain a line in wrong time format.
+ */
+public class CorpusGenerator {
+
+	/**
+	 * File with description of generated corpus. Written last, so corpus without it is incomplete.
+	 */
+	public static final String MANIFEST = "corpus.properties";
+
+	/**
+	 * Increase when format of generated playlists is changed, for regenerate old corpora.
+	 */
+	private static final int GENERATOR_VERSION = 2;
+
+	/**
+	 * Part of lines which are comments in single line.
+	 */
+	private static final double COMMENT_LINES_RATE = 0.08;
+
+	/**
+	 * Part of tracks which contain comment after track name.
+	 */
+	private static final double TRAILING_COMMENTS_RATE = 0.12;
+
+	/**
+	 * Part of tracks with Unicode title.
+	 */
+	private static final double UNICODE_TITLES_RATE = 0.15;
+
+	/**
+	 * Part of files which contain a line in wrong time format.
+	 */
+	private static final double ERROR_FILES_RATE = 0.01;
+
+	private static final int NAME_LEN_MEAN = 40;
+	private static final int NAME_LEN_DEVIATION = 20;
+	private static final int NAME_LEN_MIN = 3;
+	private static final int NAME_LEN_MAX = 200;
+
+	private static final String[] WORDS = {
+		"Allegro", "Adagio", "Andante", "Presto", "Largo", "Minuet", "Rondo", "Sonata", "Concerto",
+		"in", "A", "B", "C", "D", "E", "F", "G", "major", "minor", "assai", "ma", "non", "troppo",
+		"Live", "Remastered", "Version", "feat.", "Mix", "Part", "I", "II", "III", "Intro", "Outro"
+	};
+
+	private static final String[] UNICODE_WORDS = {
+		"Крейцерова", "соната", "Пісня", "Ноктюрн", "Größe", "Träumerei", "Élégie", "Noël", "Café",
+		"Ständchen", "夜想曲", "月光", "春の海", "Δόξα", "Καλημέρα", "Şarkı", "Żal", "ballada", "♯", "♭"
+	};
+
+	private static final String[] COMMENTS = {"# ", "// "};
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Random random;
+
+
+	public CorpusGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+
+	/**
+	 * Generate corpus in directory, if it was not generated there before with same parameters.
+	 *
+	 * @param dir directory for playlists.
+	 * @param seed seed of random generator.
+	 * @param files count of playlist files.
+	 * @param fileBytes approximate size of each playlist file (in bytes).
+	 * @return description of corpus.
+	 */
+	public static Corpus generate(File dir, long seed, int files, long fileBytes) throws IOException {
+		Corpus existing = Corpus.load(dir);
+		if (existing != null && existing.isGeneratedBy(seed, files, fileBytes)) return existing;
+
+		if (! dir.isDirectory() && ! dir.mkdirs()) throw new IOException("Can not create directory " + dir);
+		// manifest is deleted first, so interrupted generation is not taken as complete corpus
+		File manifest = new File(dir, MANIFEST);
+		if (manifest.exists() && ! manifest.delete()) throw new IOException("Can not delete " + manifest);
+		clean(dir);
+
+		CorpusGenerator generator = new CorpusGenerator(seed);
+		long lines = 0;
+		long bytes = 0;
+		int errorFiles = 0;
+		long validLines = 0;
+		long validBytes = 0;
+		for (int i = 0; i < files; i++) {
+			File file = new File(dir, String.format("playlist-%06d", i));
+			boolean withError = generator.random.nextDouble() < ERROR_FILES_RATE;
+			long fileLines = generator.writePlaylist(file, fileBytes, withError);
+
+			lines += fileLines;
+			bytes += file.length();
+			if (withError) {
+				errorFiles++;
+			} else {
+				validLines += fileLines;
+				validBytes += file.length();
+			}
+		}
+
+		Corpus corpus = new Corpus(dir, seed, files, fileBytes, lines, bytes, errorFiles, validLines, validBytes);
+		corpus.save();
+		return corpus;
+	}
+
+	/**
+	 * Delete files of previous corpus, for files of larger corpus are not converted as part of this one.
+	 */
+	private static void clean(File dir) throws IOException {
+		File[] files = dir.listFiles();
+		if (files == null) throw new IOException("Can not list directory " + dir);
+		for (File file : files) {
+			if (file.isFile() && ! file.delete()) throw new IOException("Can not delete " + file);
+		}
+	}
+
+	/**
+	 * Write one playlist file.
+	 *
+	 * @param file playlist file.
+	 * @param fileBytes approximate size of file (in bytes).
+	 * @param withError <tt>true</tt> - file contains a line in wrong time format.
+	 * @return count of written lines.
+	 */
+	public long writePlaylist(File file, long fileBytes, boolean withError) throws IOException {
+		long errorPos = (long) (random.nextDouble() * fileBytes);
+		long lines = 0;
+		long written = 0;
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			StringBuilder line = new StringBuilder();
+			while (written < fileBytes || withError) {
+				line.setLength(0);
+				if (random.nextDouble() < COMMENT_LINES_RATE) {
+					line.append(COMMENTS[random.nextInt(COMMENTS.length)]).append(title());
+				} else {
+					line.append(duration()).append('\t').append(lines).append(". ").append(title());
+					if (random.nextDouble() < TRAILING_COMMENTS_RATE) {
+						line.append("    ").append(COMMENTS[random.nextInt(COMMENTS.length)]).append(title());
+					}
+				}
+				line.append('\n');
+				lines++;
+
+				if (withError && written >= errorPos) {
+					line.append("05-15\tTrack in wrong time format\n");
+					lines++;
+					withError = false;
+				}
+
+				byte[] bytes = line.toString().getBytes(UTF_8);
+				out.write(bytes);
+				written += bytes.length;
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * @return duration in format mm:ss, sometimes without zero in start of minutes.
+	 */
+	private String duration() {
+		int min = random.nextInt(60) < 55 ? random.nextInt(10) : random.nextInt(60);
+		int sec = random.nextInt(60);
+		return String.format(random.nextInt(20) == 0 ? "%d:%02d" : "%02d:%02d", min, sec);
+	}
+
+	/**
+	 * @return track title with length in normal distribution.
+	 */
+	private String title() {
+		int len = (int) Math.round(NAME_LEN_MEAN + random.nextGaussian() * NAME_LEN_DEVIATION);
+		len = Math.max(NAME_LEN_MIN, Math.min(NAME_LEN_MAX, len));
+		String[] words = random.nextDouble() < UNICODE_TITLES_RATE ? UNICODE_WORDS : WORDS;
+
+		StringBuilder sb = new StringBuilder(len + 16);
+		while (sb.length() < len) {
+			if (sb.length() > 0) sb.append(' ');
+			sb.append(words[random.nextInt(words.length)]);
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Description of generated corpus.
+	 */
+	public static class Corpus {
+
+		private final File dir;
+		private final long seed;
+		private final int files;
+		private final long fileBytes;
+		private final long lines;
+		private final long bytes;
+
+		/**
+		 * Count of files which contain a line in wrong time format.
+		 */
+		private final int errorFiles;
+
+		/**
+		 * Lines and bytes only of files without errors.
+		 */
+		private final long validLines;
+		private final long validBytes;
+
+		public Corpus(File dir, long seed, int files, long fileBytes, long lines, long bytes,
+					  int errorFiles, long validLines, long validBytes) {
+			this.dir = dir;
+			this.seed = seed;
+			this.files = files;
+			this.fileBytes = fileBytes;
+			this.lines = lines;
+			this.bytes = bytes;
+			this.errorFiles = errorFiles;
+			this.validLines = validLines;
+			this.validBytes = validBytes;
+		}
+
+		/**
+		 * @param dir corpus directory.
+		 * @return description of corpus, or <tt>null</tt> if corpus is not generated in this directory.
+		 */
+		public static Corpus load(File dir) throws IOException {
+			File manifest = new File(dir, MANIFEST);
+			if (! manifest.isFile()) return null;
+
+			Properties props = new Properties();
+			try (InputStream in = new FileInputStream(manifest)) {
+				props.load(in);
+			}
+			if (Integer.parseInt(props.getProperty("version", "0")) != GENERATOR_VERSION) return null;
+
+			return new Corpus(dir,
+				Long.parseLong(props.getProperty("seed")),
+				Integer.parseInt(props.getProperty("files")),
+				Long.parseLong(props.getProperty("fileBytes")),
+				Long.parseLong(props.getProperty("lines")),
+				Long.parseLong(props.getProperty("bytes")),
+				Integer.parseInt(props.getProperty("errorFiles")),
+				Long.parseLong(props.getProperty("validLines")),
+				Long.parseLong(props.getProperty("validBytes")));
+		}
+
+		public void save() throws IOException {
+			Properties props = new Properties();
+			props.setProperty("version", String.valueOf(GENERATOR_VERSION));
+			props.setProperty("seed", String.valueOf(seed));
+			props.setProperty("files", String.valueOf(files));
+			props.setProperty("fileBytes", String.valueOf(fileBytes));
+			props.setProperty("lines", String.valueOf(lines));
+			props.setProperty("bytes", String.valueOf(bytes));
+			props.setProperty("errorFiles", String.valueOf(errorFiles));
+			props.setProperty("validLines", String.valueOf(validLines));
+			props.setProperty("validBytes", String.valueOf(validBytes));
+			try (OutputStream out = new FileOutputStream(new File(dir, MANIFEST))) {
+				props.store(out, "Synthetic playlists corpus");
+			}
+		}
+
+		public boolean isGeneratedBy(long seed, int files, long fileBytes) {
+			return this.seed == seed && this.files == files && this.fileBytes == fileBytes;
+		}
+
+		public File getDir() {
+			return dir;
+		}
+
+		public int getFiles() {
+			return files;
+		}
+
+		public long getLines() {
+			return lines;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		public int getErrorFiles() {
+			return errorFiles;
+		}
+
+		public long getValidLines() {
+			return validLines;
+		}
+
+		public long getValidBytes() {
+			return validBytes;
+		}
+	}
+}
@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.zip.DataFormatException;
 
 /**
@@ -8,18 +12,123 @@ public class App {
 
 	public static final String VER = "1.0";
 
+	/**
+	 * Subcommand for finding tracks playing at given time positions.
+	 */
+	public static final String CMD_AT = "at";
+
 	public static void main(String[] args) {
 		if (args.length == 0) {
 			Util.print(showHelp());
 			System.exit(1);
 		}
 
+		if (args[0].equals(CMD_AT)) {
+			findTracksAt(args);
+			return;
+		}
+
+		if (args[0].toLowerCase(Locale.ROOT).endsWith(ArchiveConverter.ZIP_EXT)) {
+			convertArchive(args);
+			return;
+		}
+
+		try {
+			convert(args[0], "audacity-labels");
+		} catch (DataFormatException e) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Convert all playlists from zip archive passed in argument 0
+	 * to zip archive or directory passed in argument 1.
+	 * Default output is zip archive, for not clash with labels file written from single playlist.
+	 *
+	 * @param args arguments of app.
+	 */
+	private static void convertArchive(String[] args) {
+		String output = args.length > 1 ? args[1] : "audacity-labels" + ArchiveConverter.ZIP_EXT;
+		try {
+			new ArchiveConverter().convert(args[0], output);
+		} catch (DataFormatException e) {
+			Util.print(e.getMessage());
+			System.exit(1);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Convert playlist file to file in Audacity labels format.
+	 *
+	 * @param playlistFile path to input playlist file.
+	 * @param labelsFile path to output labels file.
+	 */
+	public static void convert(String playlistFile, String labelsFile) throws DataFormatException {
+		Converter conv = new Converter();
+		List<AudioTrack> audioTracks = conv.readAudioTracks(playlistFile);
+		conv.calculateTime(audioTracks, 0);
+		String text = conv.prepareLabels(audioTracks);
+		Util.writeToFile(labelsFile, text);
+	}
+
+	/**
+	 * Print tracks playing at time positions passed in arguments.
+	 * Each output line: Time [TAB] Start [TAB] End [TAB] Track name.
+	 * If no track covers time position, printed only time and "-" symbol.
+	 *
+	 * @param args arguments of app: "at", path to playlist file and time positions (in seconds).
+	 */
+	private static void findTracksAt(String[] args) {
+		if (args.length < 3) {
+			Util.print(showHelp());
+			System.exit(1);
+		}
+
+		final long[] times = new long[args.length - 2];
+		try {
+			for (int i = 0; i < times.length; i++) {
+				times[i] = Long.parseLong(args[i + 2]);
+			}
+		} catch (NumberFormatException e) {
+			Util.print("Time position must be given in seconds: " + e.getMessage());
+			System.exit(1);
+		}
+
+		// index finds tracks for sorted times in one pass, results are printed in order of arguments
+		Integer[] order = new Integer[times.length];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Long.compare(times[i1], times[i2]);
+			}
+		});
+		long[] sortedTimes = new long[times.length];
+		for (int i = 0; i < order.length; i++) sortedTimes[i] = times[order[i]];
+
 		Converter conv = new Converter();
 		try {
-			List<AudioTrack> audioTracks = conv.readAudioTracks(args[0]);
+			List<AudioTrack> audioTracks = conv.readAudioTracks(args[1]);
 			conv.calculateTime(audioTracks, 0);
-			String text = conv.prepareLabels(audioTracks);
-			Util.writeToFile("audacity-labels", text);
+			TimelineIndex index = new TimelineIndex(audioTracks);
+
+			int[] sortedIndices = index.indicesAt(sortedTimes);
+			int[] indices = new int[times.length];
+			for (int i = 0; i < order.length; i++) indices[order[i]] = sortedIndices[i];
+
+			StringBuilderCLI sb = new StringBuilderCLI();
+			for (int i = 0; i < times.length; i++) {
+				if (indices[i] == TimelineIndex.NOT_FOUND) {
+					sb.append(times[i] + "\t-");
+					continue;
+				}
+				AudioTrack track = index.getTrack(indices[i]);
+				sb.append(times[i] + "\t" + track.getStartTime() + "\t" + track.getEndTime() + "\t" + track.getName());
+			}
+			System.out.print(sb.toString());
 		} catch (DataFormatException e) {
 			System.exit(1);
 		}
@@ -36,7 +145,15 @@ public class App {
 		sb.append("");
 		sb.append("Arguments:");
 		sb.append("If not passed  - show this help message and exit.");
-		sb.append("arg 0 - path to input playlist file.");
+		sb.append("arg 0 - path to input playlist file. Playlist compressed by gzip (.gz) is read directly.");
+		sb.append("");
+		sb.append("Converting all playlists from zip archive (arg 0 ends with .zip):");
+		sb.append("arg 1 - path to output .zip archive or directory (default: audacity-labels.zip archive).");
+		sb.append("Playlists in archive must be in UTF-8 encoding, single playlist file is read in platform encoding.");
+		sb.append("");
+		sb.append("Subcommand for finding tracks playing at given time positions:");
+		sb.append("at <playlist file> <seconds> [<seconds> ...]");
+		sb.append("Prints for each time (in order of arguments): Time [TAB] Start [TAB] End [TAB] Track name.");
 		sb.append("");
 		sb.append("");
 		sb.append("Input playlist file contained audio tracks.");
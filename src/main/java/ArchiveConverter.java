@@ -0,0 +1,265 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Converting all playlists from zip archive to Audacity labels format.
+ * Archive is read once by stream, without extracting to temporary files.
+ * Each entry is read to memory and converted in separate thread,
+ * while next entries are read from archive.
+ *
+ * Playlists are read and labels are written in UTF-8 encoding.
+ * Labels are written in order of entries in archive, with same entry names,
+ * to zip archive (if output name ends with {@link #ZIP_EXT}, in any case) or to directory.
+ *
+ * At most 2 * threads + 1 entries and their labels are kept in memory at the same time,
+ * so peak memory is about this count multiplied by size of the largest entry.
+ * For archives with large entries use less threads.
+ */
+public class ArchiveConverter {
+
+	/**
+	 * Extension of zip archives.
+	 */
+	public static final String ZIP_EXT = ".zip";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final int threads;
+
+
+	public ArchiveConverter() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads count of threads converting entries at the same time, at least 1.
+	 */
+	public ArchiveConverter(int threads) {
+		if (threads < 1) throw new IllegalArgumentException("Count of threads must be at least 1: " + threads);
+		this.threads = threads;
+	}
+
+
+	/**
+	 * Convert all playlists from zip archive.
+	 * Entries with wrong format are skipped, other entries are converted.
+	 *
+	 * @param archive path to zip archive with playlists.
+	 * @param output path to output zip archive or directory.
+	 * @throws DataFormatException some of playlists are in wrong format.
+	 */
+	public void convert(String archive, String output) throws IOException, DataFormatException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(archive));
+			 LabelsOutput out = output.toLowerCase(Locale.ROOT).endsWith(ZIP_EXT) ? new ZipLabelsOutput(output) : new DirLabelsOutput(output)) {
+			convert(in, out);
+		}
+	}
+
+	private void convert(InputStream in, LabelsOutput out) throws IOException, DataFormatException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Deque<Future<Labels>> pending = new ArrayDeque<>();
+		int failed = 0;
+		try {
+			ZipInputStream zin = new ZipInputStream(in);
+			ZipEntry entry;
+			while ((entry = zin.getNextEntry()) != null) {
+				if (entry.isDirectory()) continue;
+
+				pending.add(executor.submit(new EntryConversion(entry.getName(), readEntry(zin, entry))));
+
+				// limit count of entries kept in memory
+				while (pending.size() > threads * 2) {
+					if (! write(pending.poll(), out)) failed++;
+				}
+			}
+			while (! pending.isEmpty()) {
+				if (! write(pending.poll(), out)) failed++;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (failed > 0) throw new DataFormatException(failed + " playlists in archive are in the wrong format.");
+	}
+
+	/**
+	 * Wait for conversion of entry and write its labels.
+	 *
+	 * @return <tt>true</tt> - labels written, otherwise <tt>false</tt> if playlist is in wrong format.
+	 */
+	private boolean write(Future<Labels> future, LabelsOutput out) throws IOException {
+		Labels labels;
+		try {
+			labels = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Conversion of archive interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+
+		if (labels.error != null) {
+			Util.print("Playlist [" + labels.name + "] skipped. " + labels.error.getMessage());
+			return false;
+		}
+		out.write(labels.name, labels.text);
+		return true;
+	}
+
+	/**
+	 * Read current entry to memory.
+	 * If size of entry is known from its header, entry is read directly to array of this size, without copying.
+	 */
+	private static byte[] readEntry(ZipInputStream zin, ZipEntry entry) throws IOException {
+		long size = entry.getSize();
+		if (size > Integer.MAX_VALUE - 8) throw new IOException("Entry [" + entry.getName() + "] is too large: " + size + " bytes.");
+		if (size >= 0) {
+			byte[] bytes = new byte[(int) size];
+			int off = 0;
+			while (off < bytes.length) {
+				int len = zin.read(bytes, off, bytes.length - off);
+				if (len == -1) throw new IOException("Entry [" + entry.getName() + "] is shorter than its size.");
+				off += len;
+			}
+			// reading end of entry also checks its size and CRC
+			if (zin.read() != -1) throw new IOException("Entry [" + entry.getName() + "] is longer than its size.");
+			return bytes;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buf = new byte[8192];
+		int len;
+		while ((len = zin.read(buf)) != -1) {
+			bytes.write(buf, 0, len);
+		}
+		return bytes.toByteArray();
+	}
+
+
+	/**
+	 * Conversion of one entry of archive.
+	 */
+	private static class EntryConversion implements Callable<Labels> {
+
+		private final String name;
+		private final byte[] playlist;
+
+		EntryConversion(String name, byte[] playlist) {
+			this.name = name;
+			this.playlist = playlist;
+		}
+
+		@Override
+		public Labels call() throws IOException {
+			Converter conv = new Converter();
+			try (BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(playlist), UTF_8))) {
+				List<AudioTrack> audioTracks = conv.readAudioTracks(br);
+				conv.calculateTime(audioTracks, 0);
+				return new Labels(name, conv.prepareLabels(audioTracks).getBytes(UTF_8), null);
+			} catch (DataFormatException e) {
+				return new Labels(name, null, e);
+			}
+		}
+	}
+
+	/**
+	 * Result of conversion of one entry: labels text in UTF-8, or error of playlist format.
+	 */
+	private static class Labels {
+		final String name;
+		final byte[] text;
+		final DataFormatException error;
+
+		Labels(String name, byte[] text, DataFormatException error) {
+			this.name = name;
+			this.text = text;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Destination of converted labels.
+	 */
+	private interface LabelsOutput extends AutoCloseable {
+
+		void write(String name, byte[] text) throws IOException;
+
+		@Override
+		void close() throws IOException;
+	}
+
+	private static class ZipLabelsOutput implements LabelsOutput {
+
+		private final ZipOutputStream zout;
+
+		ZipLabelsOutput(String file) throws IOException {
+			zout = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		}
+
+		@Override
+		public void write(String name, byte[] text) throws IOException {
+			zout.putNextEntry(new ZipEntry(name));
+			zout.write(text);
+			zout.closeEntry();
+		}
+
+		@Override
+		public void close() throws IOException {
+			zout.close();
+		}
+	}
+
+	private static class DirLabelsOutput implements LabelsOutput {
+
+		private final File dir;
+
+		DirLabelsOutput(String dir) throws IOException {
+			this.dir = new File(dir).getCanonicalFile();
+			if (! this.dir.isDirectory() && ! this.dir.mkdirs()) throw new IOException("Can not create directory " + dir);
+		}
+
+		@Override
+		public void write(String name, byte[] text) throws IOException {
+			File file = new File(dir, name).getCanonicalFile();
+			if (! file.getPath().startsWith(dir.getPath() + File.separator)) {
+				throw new IOException("Entry [" + name + "] is outside of output directory.");
+			}
+			if (! file.getParentFile().isDirectory() && ! file.getParentFile().mkdirs()) {
+				throw new IOException("Can not create directory " + file.getParentFile());
+			}
+
+			try (OutputStream out = new FileOutputStream(file)) {
+				out.write(text);
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
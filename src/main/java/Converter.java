@@ -1,13 +1,15 @@
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TimeZone;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Converting human readable playlist to Audacity labels format.
@@ -15,7 +17,13 @@ import java.util.zip.DataFormatException;
 public class Converter {
 
 	/**
-	 * Read playlist file from FS.
+	 * Extension of playlist files compressed by gzip.
+	 */
+	public static final String GZIP_EXT = ".gz";
+
+	/**
+	 * Read playlist file from FS in platform default encoding.
+	 * Playlist file compressed by gzip (with extension {@link #GZIP_EXT} in any case) is decompressed while reading.
 	 * Format playlist: <br>
 	 * Time(minutes:seconds) [TAB] Track name <br>
 	 * <br>
@@ -29,31 +37,67 @@ public class Converter {
 	 */
 	public List<AudioTrack> readAudioTracks(String file) throws DataFormatException{
 		List<AudioTrack> audioTracks = new ArrayList<>();
-		try(BufferedReader br = new BufferedReader(new FileReader(file))) {
-			String line;
-			while ((line = br.readLine()) != null) {
-				String correctPLLine = checkCorrectPlaylistLine(line);
-				if (! correctPLLine.equals("1")) continue;
-				if (isStartLineWithComment(line)) continue;
+		try(BufferedReader br = new BufferedReader(new InputStreamReader(openPlaylist(file)))) {
+			audioTracks = readAudioTracks(br);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 
-				line = removeComment(line);
+		return audioTracks;
+	}
 
-				String[] spl = line.split("\\t");
-				if (validateTimeFormatMMSS(spl[0])) {
-					audioTracks.add(new AudioTrack(spl[0], spl[1]));
-				} else {
-					throw new DataFormatException("Audio track [" + line + "] is in the wrong time format.");
-				}
+	/**
+	 * Read playlist from reader, line by line.
+	 *
+	 * @param br reader of playlist in format described in {@link #readAudioTracks(String)}.
+	 * @return list of POJO audio tracks files
+	 */
+	public List<AudioTrack> readAudioTracks(BufferedReader br) throws IOException, DataFormatException {
+		List<AudioTrack> audioTracks = new ArrayList<>();
+		String line;
+		while ((line = br.readLine()) != null) {
+			// same checks as checkCorrectPlaylistLine, but without building message for each skipped line
+			if (line.length() == 0 || line.indexOf('\t') == -1) continue;
+			if (isStartLineWithComment(line)) continue;
 
+			line = removeComment(line);
 
+			int tabPos = line.indexOf('\t');
+			if (tabPos == -1) {
+				throw new DataFormatException("Audio track [" + line + "] does not contain a name separated by TAB character.");
+			}
+			int nameEndPos = line.indexOf('\t', tabPos + 1);
+			if (nameEndPos == -1) nameEndPos = line.length();
+
+			String duration = line.substring(0, tabPos);
+			if (validateTimeFormatMMSS(duration)) {
+				audioTracks.add(new AudioTrack(duration, line.substring(tabPos + 1, nameEndPos)));
+			} else {
+				throw new DataFormatException("Audio track [" + line + "] is in the wrong time format.");
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
 
 		return audioTracks;
 	}
 
+	/**
+	 * Open playlist file for reading. Gzip compressed file is decompressed by stream, without temporary files.
+	 *
+	 * @param file path to playlist file.
+	 * @return stream of playlist text.
+	 */
+	private InputStream openPlaylist(String file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		if (! file.toLowerCase(Locale.ROOT).endsWith(GZIP_EXT)) return in;
+
+		try {
+			return new GZIPInputStream(in);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
 	/**
 	 * Calculate time range - start and end positions for all audio tracks.
 	 * Method nothing returned, but modified {@link AudioTrack#startTime}
@@ -67,9 +111,7 @@ public class Converter {
 
 		for (AudioTrack track : tracks) {
 			try {
-				SimpleDateFormat sdf = new SimpleDateFormat("mm:ss");
-				sdf.setTimeZone(TimeZone.getTimeZone("UTC"));    // pure time - started from 0 ms
-				long currTrackDurMs = sdf.parse(track.getDuration()).getTime();    // end track time
+				long currTrackDurMs = parseDurationMs(track.getDuration());    // end track time
 				long currTrackDurSec = TimeUnit.MILLISECONDS.toSeconds(currTrackDurMs);
 
 				long startTimePosSec = TimeUnit.MILLISECONDS.toSeconds(prevTrackStartTimeMs);
@@ -93,16 +135,61 @@ public class Converter {
 	 * @return <tt>true</tt> - correct format given in time var, otherwise <tt>false</tt>
 	 */
 	public boolean validateTimeFormatMMSS(String time) {
-		boolean isValidLen = false;
-		if (time.length() == 4 || time.length() == 5) isValidLen = true;	// for allow 3:02 and 03:02
+		if (time.length() != 4 && time.length() != 5) return false;	// for allow 3:02 and 03:02
+
+		int delimiterPos = time.indexOf(':');
+		if (delimiterPos != 1 && delimiterPos != 2) return false;	// for allow 3:02 and 03:02
+
+		// same as regular expression (^[0-5]?[0-9]):([0-5]?[0-9]$) , but without compiling pattern for each line
+		return isTimeField(time, 0, delimiterPos) && isTimeField(time, delimiterPos + 1, time.length());
+	}
+
+	/**
+	 * Check that part of time string is minutes or seconds value: one digit or two digits from 00 to 59.
+	 *
+	 * @param time time string
+	 * @param from start position of field, inclusive
+	 * @param to end position of field, exclusive
+	 * @return <tt>true</tt> - field is correct, otherwise <tt>false</tt>
+	 */
+	private boolean isTimeField(String time, int from, int to) {
+		int len = to - from;
+		if (len == 1) return isDigit(time.charAt(from));
+		if (len == 2) return time.charAt(from) >= '0' && time.charAt(from) <= '5' && isDigit(time.charAt(from + 1));
+		return false;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * Parse track duration in format mm:ss (minutes : seconds).
+	 * Minutes and seconds may be given by one or more digits, as allowed by lenient {@link java.text.SimpleDateFormat}.
+	 *
+	 * @param duration track duration
+	 * @return duration in milliseconds
+	 * @throws ParseException duration is not in format mm:ss
+	 */
+	private long parseDurationMs(String duration) throws ParseException {
+		int delimiterPos = duration.indexOf(':');
+		if (delimiterPos <= 0) throw new ParseException("Unparseable duration: \"" + duration + "\"", 0);
 
-		boolean isPresentDelimiter = false;
-		if (time.toCharArray()[1] == ':' || time.toCharArray()[2] == ':') isPresentDelimiter = true;	// for allow 3:02 and 03:02
+		long min = parseNumber(duration, 0, delimiterPos);
+		long sec = parseNumber(duration, delimiterPos + 1, duration.length());
+		return TimeUnit.MINUTES.toMillis(min) + TimeUnit.SECONDS.toMillis(sec);
+	}
 
-		// https://www.regular-expressions.info/numericranges.html
-		boolean isMatchTime = time.matches("(^[0-5]?[0-9]):([0-5]?[0-9]$)");
+	private long parseNumber(String duration, int from, int to) throws ParseException {
+		if (from >= to) throw new ParseException("Unparseable duration: \"" + duration + "\"", from);
 
-		return isValidLen && isPresentDelimiter && isMatchTime;
+		long num = 0;
+		for (int i = from; i < to; i++) {
+			char ch = duration.charAt(i);
+			if (! isDigit(ch)) throw new ParseException("Unparseable duration: \"" + duration + "\"", i);
+			num = num * 10 + (ch - '0');
+		}
+		return num;
 	}
 
 	/**
@@ -147,12 +234,11 @@ public class Converter {
 		if (! line.contains(COMMENT_TYPE_1) && ! line.contains(COMMENT_TYPE_2)) return line.trim();
 
 		String commentType = null;
-		char chCmType1 = COMMENT_TYPE_1.toCharArray()[0];
-		char chCmType2 = COMMENT_TYPE_2.toCharArray()[0];
-		char[] lineChars = line.toCharArray();
-		for (int i = 0; i < lineChars.length; i++) {
-			char ch = lineChars[i];
-			if (lineChars[i] == chCmType1 && lineChars[i+1] == chCmType1) {
+		char chCmType1 = COMMENT_TYPE_1.charAt(0);
+		char chCmType2 = COMMENT_TYPE_2.charAt(0);
+		for (int i = 0; i < line.length(); i++) {
+			char ch = line.charAt(i);
+			if (ch == chCmType1 && i + 1 < line.length() && line.charAt(i + 1) == chCmType1) {
 				commentType = COMMENT_TYPE_1;
 				break;
 			}
@@ -174,13 +260,13 @@ public class Converter {
 	 * @return string contained all necessary text data will be saved to file.
 	 */
 	public String prepareLabels(List<AudioTrack> tracks) {
-		String text = "";	// could be applied StringBuilder, but not necessary, low size text data processed.
+		StringBuilder text = new StringBuilder();
 		for (AudioTrack track : tracks) {
-			text += track.getStartTime() + "\t"
-				+ track.getEndTime() + "\t"
-				+ track.getName() + "\n";
+			text.append(track.getStartTime()).append('\t')
+				.append(track.getEndTime()).append('\t')
+				.append(track.getName()).append('\n');
 		}
-		return text;
+		return text.toString();
 	}
 
 }
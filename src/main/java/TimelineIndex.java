@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable index over time positions of audio tracks in playlist.
+ * Answers which track is playing at given second using binary search
+ * over start and end positions computed by {@link Converter#calculateTime(List, long)}.
+ *
+ * Each track covers half open range [start, end) in seconds.
+ */
+public class TimelineIndex {
+
+	/**
+	 * Value returned when no track covers requested time position.
+	 */
+	public static final int NOT_FOUND = -1;
+
+	private final List<AudioTrack> tracks;
+
+	/**
+	 * Start time positions of tracks (in seconds). Sorted in ascending order.
+	 */
+	private final long[] starts;
+
+	/**
+	 * End time positions of tracks (in seconds).
+	 */
+	private final long[] ends;
+
+
+	/**
+	 * Build index from audio tracks.
+	 * Time positions must be already calculated and tracks must be placed one after another.
+	 *
+	 * @param tracks all audio tracks with calculated start and end positions.
+	 */
+	public TimelineIndex(List<AudioTrack> tracks) {
+		this.tracks = Collections.unmodifiableList(new ArrayList<>(tracks));
+		this.starts = new long[tracks.size()];
+		this.ends = new long[tracks.size()];
+
+		for (int i = 0; i < this.tracks.size(); i++) {
+			AudioTrack track = this.tracks.get(i);
+			if (i > 0 && track.getStartTime() < ends[i - 1]) {
+				throw new IllegalArgumentException("Audio track [" + track.getName() + "] starts before end of previous track.");
+			}
+			if (track.getEndTime() < track.getStartTime()) {
+				throw new IllegalArgumentException("Audio track [" + track.getName() + "] ends before its start.");
+			}
+			starts[i] = track.getStartTime();
+			ends[i] = track.getEndTime();
+		}
+	}
+
+
+	/**
+	 * @return count of audio tracks in this index.
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * @param index position of track in playlist.
+	 * @return audio track at given position.
+	 */
+	public AudioTrack getTrack(int index) {
+		return tracks.get(index);
+	}
+
+	/**
+	 * Find position of track which is playing at given time.
+	 *
+	 * @param time time position (in seconds).
+	 * @return position of track in playlist, or {@link #NOT_FOUND} if no track covers given time.
+	 */
+	public int indexAt(long time) {
+		int i = lastStartedAt(time);
+		return i != NOT_FOUND && time < ends[i] ? i : NOT_FOUND;
+	}
+
+	/**
+	 * Find track which is playing at given time.
+	 *
+	 * @param time time position (in seconds).
+	 * @return audio track, or <tt>null</tt> if no track covers given time.
+	 */
+	public AudioTrack trackAt(long time) {
+		int i = indexAt(time);
+		return i != NOT_FOUND ? tracks.get(i) : null;
+	}
+
+	/**
+	 * Find all tracks which are playing at least partially in time range [from, to).
+	 *
+	 * @param from start of time range (in seconds), inclusive.
+	 * @param to end of time range (in seconds), exclusive.
+	 * @return audio tracks in playlist order. Empty list if no one track covers given range.
+	 */
+	public List<AudioTrack> tracksBetween(long from, long to) {
+		if (from >= to) return Collections.emptyList();
+
+		int first = lastStartedAt(from);
+		if (first == NOT_FOUND || ends[first] <= from) first++;
+		int last = lastStartedAt(to - 1);
+
+		if (first > last) return Collections.emptyList();
+		return tracks.subList(first, last + 1);
+	}
+
+	/**
+	 * Find positions of tracks for many time positions in one pass.
+	 * Time positions must be sorted in ascending order.
+	 *
+	 * @param times sorted time positions (in seconds).
+	 * @return positions of tracks in playlist in the same order as given times.
+	 * For time not covered by any track contains {@link #NOT_FOUND}.
+	 */
+	public int[] indicesAt(long[] times) {
+		int[] res = new int[times.length];
+		int i = NOT_FOUND;
+		for (int t = 0; t < times.length; t++) {
+			long time = times[t];
+			if (t > 0 && time < times[t - 1]) {
+				throw new IllegalArgumentException("Time positions must be sorted in ascending order.");
+			}
+			i = advance(i, time);
+			res[t] = i != NOT_FOUND && time < ends[i] ? i : NOT_FOUND;
+		}
+		return res;
+	}
+
+	/**
+	 * Move cursor forward to last track started at or before given time.
+	 * Galloping search from cursor: steps grow twice each time, then binary search in the last step,
+	 * so sparse time positions do not walk through all tracks between them.
+	 *
+	 * @param cursor position of last track started at or before previous time, or {@link #NOT_FOUND}.
+	 * @param time time position (in seconds), not less than previous time.
+	 * @return new position of cursor.
+	 */
+	private int advance(int cursor, long time) {
+		int lo = cursor + 1;
+		if (lo >= starts.length || starts[lo] > time) return cursor;
+
+		int step = 1;
+		while (lo + step < starts.length && starts[lo + step] <= time) {
+			lo += step;
+			step <<= 1;
+		}
+		return lastStartedAt(time, lo, Math.min(lo + step, starts.length) - 1);
+	}
+
+	/**
+	 * Binary search of last track started at or before given time.
+	 *
+	 * @param time time position (in seconds).
+	 * @return position of track, or {@link #NOT_FOUND} if all tracks started after given time.
+	 */
+	private int lastStartedAt(long time) {
+		return lastStartedAt(time, 0, starts.length - 1);
+	}
+
+	/**
+	 * Binary search of last track started at or before given time, in range of positions [lo, hi].
+	 *
+	 * @return position of track, or lo - 1 if all tracks in range started after given time.
+	 */
+	private int lastStartedAt(long time, int lo, int hi) {
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] <= time) lo = mid + 1;
+			else hi = mid - 1;
+		}
+		return hi;
+	}
+}
@@ -2,6 +2,7 @@
  * Created by max on 27.07.20.
  */
 
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
@@ -29,7 +30,8 @@ public class Util {
 	 */
 	public static void writeToFile(String fileName, String text) {
 		try {
-			OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8");
+			// buffered writer copies text by chunks, without copying all text to one more char array
+			BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8"));
 			writer.write(text);
 			writer.close();
 		} catch (IOException e) {
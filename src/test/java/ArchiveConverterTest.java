@@ -0,0 +1,166 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ArchiveConverterTest {
+
+	private static final String PLAYLIST_CORRECT = "src/test/resources/playlist0_correct";
+
+	private static final String PLAYLIST_WITH_COMMENTS = "src/test/resources/playlist1_comments";
+
+	private static final String PLAYLIST_WITH_LINE_WRONG_DATE_FORMAT = "src/test/resources/playlist2_lineInWrongDateFormat";
+
+	private static final String LABELS_CORRECT = "0\t190\t1. Allegro in A major\n"
+		+ "190\t205\t2. Adagio in F minor\n"
+		+ "205\t230\t3. Allegro assai in A major\n";
+
+	private static final String LABELS_COMMENTS = "0\t10\t1. abcd\n"
+		+ "10\t325\t2. def\n"
+		+ "325\t746\t3. ghk\n"
+		+ "746\t1061\t4. efi\n";
+
+
+	@Test
+	public void testConvert_toZip() throws IOException, DataFormatException {
+		File archive = createArchive(PLAYLIST_CORRECT, PLAYLIST_WITH_COMMENTS);
+		File output = File.createTempFile("labels", ArchiveConverter.ZIP_EXT);
+		output.deleteOnExit();
+
+		new ArchiveConverter(2).convert(archive.getAbsolutePath(), output.getAbsolutePath());
+
+		Map<String, String> labels = readArchive(output);
+		Assert.assertEquals(2, labels.size());
+		Assert.assertEquals(LABELS_CORRECT, labels.get("playlists/playlist0_correct"));
+		Assert.assertEquals(LABELS_COMMENTS, labels.get("playlists/playlist1_comments"));
+	}
+
+	@Test
+	public void testConvert_toDirectory() throws IOException, DataFormatException {
+		File archive = createArchive(PLAYLIST_CORRECT, PLAYLIST_WITH_COMMENTS);
+		File output = Files.createTempDirectory("labels").toFile();
+
+		new ArchiveConverter(2).convert(archive.getAbsolutePath(), output.getAbsolutePath());
+
+		File labels = new File(output, "playlists/playlist0_correct");
+		labels.deleteOnExit();
+		Assert.assertEquals(LABELS_CORRECT, new String(Files.readAllBytes(labels.toPath()), "UTF-8"));
+	}
+
+	/**
+	 * Playlist in wrong format is skipped, but other playlists are converted.
+	 */
+	@Test
+	public void testConvert_wrongDateFormat() throws IOException {
+		File archive = createArchive(PLAYLIST_CORRECT, PLAYLIST_WITH_LINE_WRONG_DATE_FORMAT, PLAYLIST_WITH_COMMENTS);
+		File output = File.createTempFile("labels", ArchiveConverter.ZIP_EXT);
+		output.deleteOnExit();
+
+		try {
+			new ArchiveConverter(2).convert(archive.getAbsolutePath(), output.getAbsolutePath());
+			Assert.fail("DataFormatException expected");
+		} catch (DataFormatException e) {
+			Map<String, String> labels = readArchive(output);
+			Assert.assertEquals(2, labels.size());
+			Assert.assertEquals(LABELS_COMMENTS, labels.get("playlists/playlist1_comments"));
+		}
+	}
+
+	/**
+	 * Unicode track names are read and written in UTF-8, independent of platform encoding.
+	 */
+	@Test
+	public void testConvert_unicodeNames() throws IOException, DataFormatException {
+		File archive = File.createTempFile("playlists", ArchiveConverter.ZIP_EXT);
+		archive.deleteOnExit();
+		try (ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(archive))) {
+			zout.putNextEntry(new ZipEntry("unicode"));
+			zout.write("03:10\t1. Träumerei ♯\n00:15\t2. Крейцерова соната\n".getBytes("UTF-8"));
+			zout.closeEntry();
+		}
+		File output = File.createTempFile("labels", ArchiveConverter.ZIP_EXT);
+		output.deleteOnExit();
+
+		new ArchiveConverter(1).convert(archive.getAbsolutePath(), output.getAbsolutePath());
+
+		Assert.assertEquals("0\t190\t1. Träumerei ♯\n190\t205\t2. Крейцерова соната\n", readArchive(output).get("unicode"));
+	}
+
+	/**
+	 * Entries stored without compression have size in header and are read directly to array of this size.
+	 * Output archive extension is matched in any case.
+	 */
+	@Test
+	public void testConvert_storedEntriesToUpperCaseZip() throws IOException, DataFormatException {
+		File archive = File.createTempFile("playlists", ArchiveConverter.ZIP_EXT);
+		archive.deleteOnExit();
+		try (ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(archive))) {
+			byte[] playlist = Files.readAllBytes(new File(PLAYLIST_CORRECT).toPath());
+			ZipEntry entry = new ZipEntry("playlist0_correct");
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(playlist.length);
+			CRC32 crc = new CRC32();
+			crc.update(playlist);
+			entry.setCrc(crc.getValue());
+			zout.putNextEntry(entry);
+			zout.write(playlist);
+			zout.closeEntry();
+		}
+		File output = File.createTempFile("labels", ".ZIP");
+		output.deleteOnExit();
+
+		new ArchiveConverter(1).convert(archive.getAbsolutePath(), output.getAbsolutePath());
+
+		Assert.assertEquals(LABELS_CORRECT, readArchive(output).get("playlist0_correct"));
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void testConstructor_noThreads() {
+		new ArchiveConverter(0);
+	}
+
+
+	private static File createArchive(String... playlists) throws IOException {
+		File archive = File.createTempFile("playlists", ArchiveConverter.ZIP_EXT);
+		archive.deleteOnExit();
+		try (ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(archive))) {
+			zout.putNextEntry(new ZipEntry("playlists/"));
+			zout.closeEntry();
+			for (String playlist : playlists) {
+				File file = new File(playlist);
+				zout.putNextEntry(new ZipEntry("playlists/" + file.getName()));
+				zout.write(Files.readAllBytes(file.toPath()));
+				zout.closeEntry();
+			}
+		}
+		return archive;
+	}
+
+	private static Map<String, String> readArchive(File archive) throws IOException {
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (InputStream in = new FileInputStream(archive); ZipInputStream zin = new ZipInputStream(in)) {
+			ZipEntry entry;
+			while ((entry = zin.getNextEntry()) != null) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				byte[] buf = new byte[1024];
+				int len;
+				while ((len = zin.read(buf)) != -1) bytes.write(buf, 0, len);
+				entries.put(entry.getName(), bytes.toString("UTF-8"));
+			}
+		}
+		return entries;
+	}
+}
@@ -0,0 +1,209 @@
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+/**
+ * Allocation budgets for conversion hot path.
+ * Measured bytes allocated by current thread on large synthetic playlists.
+ * Budgets are set with headroom over values measured with UTF-16 strings, as on JDK 7 and 8
+ * (simulated by -XX:-CompactStrings on newer JDK, where values are lower),
+ * but fail when per line SimpleDateFormat, regular expressions or String concatenation come back.
+ */
+public class ConverterAllocationTest {
+
+	/**
+	 * Max allocated bytes per parsed playlist line in {@link Converter#readAudioTracks(String)}.
+	 * Contains line itself, audio track, duration and name strings and list growth.
+	 */
+	private static final double BUDGET_READ_PER_LINE = 704;
+
+	/**
+	 * Max allocated bytes per skipped playlist line (comment or empty) in {@link Converter#readAudioTracks(String)}.
+	 * Contains only line itself.
+	 */
+	private static final double BUDGET_READ_PER_SKIPPED_LINE = 144;
+
+	/**
+	 * Max allocated bytes per track in {@link Converter#calculateTime(List, long)}.
+	 * Nothing should be allocated per track.
+	 */
+	private static final double BUDGET_CALCULATE_PER_TRACK = 16;
+
+	/**
+	 * Max allocated bytes per output byte in {@link Converter#prepareLabels(List)}.
+	 * Contains growth of StringBuilder and result string.
+	 */
+	private static final double BUDGET_PREPARE_PER_BYTE = 10;
+
+	/**
+	 * Max allocated bytes per output byte in {@link Util#writeToFile(String, String)}.
+	 */
+	private static final double BUDGET_WRITE_PER_BYTE = 0.5;
+
+	private static final int READ_TRACKS = 200000;
+
+	private static final int CALCULATE_TRACKS = 200000;
+
+	/**
+	 * Less tracks than in other measurements, for String concatenation regression not hang the test.
+	 */
+	private static final int PREPARE_TRACKS = 5000;
+
+	private static final int WARM_UP_ROUNDS = 3;
+
+	private static com.sun.management.ThreadMXBean threadBean;
+
+
+	@BeforeClass
+	public static void setUpThreadBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+		threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+
+	@Test
+	public void testReadAudioTracks_allocationPerLine() throws IOException, DataFormatException {
+		File playlist = File.createTempFile("playlist", null);
+		playlist.deleteOnExit();
+		writePlaylist(playlist, READ_TRACKS);
+
+		Converter conv = new Converter();
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) conv.readAudioTracks(playlist.getAbsolutePath());
+
+		long start = allocatedBytes();
+		List<AudioTrack> tracks = conv.readAudioTracks(playlist.getAbsolutePath());
+		long allocated = allocatedBytes() - start;
+
+		Assert.assertEquals(READ_TRACKS, tracks.size());
+		assertBudget("readAudioTracks, bytes per line", allocated, READ_TRACKS, BUDGET_READ_PER_LINE);
+	}
+
+	@Test
+	public void testReadAudioTracks_allocationPerSkippedLine() throws IOException, DataFormatException {
+		File playlist = File.createTempFile("playlist", null);
+		playlist.deleteOnExit();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(playlist), "UTF-8")) {
+			for (int i = 0; i < READ_TRACKS; i++) {
+				writer.write(i % 2 == 0 ? "# comment in single line before track " + i + "\n" : "// other comment\n");
+			}
+		}
+
+		Converter conv = new Converter();
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) conv.readAudioTracks(playlist.getAbsolutePath());
+
+		long start = allocatedBytes();
+		List<AudioTrack> tracks = conv.readAudioTracks(playlist.getAbsolutePath());
+		long allocated = allocatedBytes() - start;
+
+		Assert.assertTrue(tracks.isEmpty());
+		assertBudget("readAudioTracks, bytes per skipped line", allocated, READ_TRACKS, BUDGET_READ_PER_SKIPPED_LINE);
+	}
+
+	@Test
+	public void testCalculateTime_allocationPerTrack() {
+		List<AudioTrack> tracks = createTracks(CALCULATE_TRACKS);
+
+		Converter conv = new Converter();
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) conv.calculateTime(tracks, 0);
+
+		long start = allocatedBytes();
+		conv.calculateTime(tracks, 0);
+		long allocated = allocatedBytes() - start;
+
+		assertBudget("calculateTime, bytes per track", allocated, CALCULATE_TRACKS, BUDGET_CALCULATE_PER_TRACK);
+	}
+
+	@Test
+	public void testPrepareLabels_allocationPerOutputByte() {
+		List<AudioTrack> tracks = createTracks(PREPARE_TRACKS);
+		Converter conv = new Converter();
+		conv.calculateTime(tracks, 0);
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) conv.prepareLabels(tracks);
+
+		long start = allocatedBytes();
+		String text = conv.prepareLabels(tracks);
+		long allocated = allocatedBytes() - start;
+
+		assertBudget("prepareLabels, bytes per output byte", allocated, text.length(), BUDGET_PREPARE_PER_BYTE);
+	}
+
+	@Test
+	public void testWriteToFile_allocationPerOutputByte() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < READ_TRACKS; i++) {
+			sb.append(i * 60).append('\t').append(i * 60 + 60).append('\t').append(trackName(i)).append('\n');
+		}
+		String text = sb.toString();
+
+		File labels = File.createTempFile("labels", null);
+		labels.deleteOnExit();
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) Util.writeToFile(labels.getAbsolutePath(), text);
+
+		long start = allocatedBytes();
+		Util.writeToFile(labels.getAbsolutePath(), text);
+		long allocated = allocatedBytes() - start;
+
+		Assert.assertEquals(text.length(), labels.length());
+		assertBudget("writeToFile, bytes per output byte", allocated, text.length(), BUDGET_WRITE_PER_BYTE);
+	}
+
+
+	private static long allocatedBytes() {
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Print measured value to test output and check it against budget.
+	 */
+	private static void assertBudget(String name, long allocated, long units, double budget) {
+		double perUnit = (double) allocated / units;
+		System.out.println(String.format("Allocation %s: %.2f (budget %.2f, total %d bytes)", name, perUnit, budget, allocated));
+		Assert.assertTrue(name + " is " + perUnit + ", over budget " + budget, perUnit <= budget);
+	}
+
+	/**
+	 * Synthetic playlist: every track in format mm:ss [TAB] name,
+	 * every 10th line is comment and every 5th track contain comment after name.
+	 */
+	private static void writePlaylist(File file, int tracksCount) throws IOException {
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+			for (int i = 0; i < tracksCount; i++) {
+				if (i % 10 == 0) writer.write("# comment in single line before track " + i + "\n");
+				writer.write(duration(i) + "\t" + trackName(i));
+				if (i % 5 == 0) writer.write("    // comment after track name");
+				writer.write("\n");
+			}
+		}
+	}
+
+	private static List<AudioTrack> createTracks(int tracksCount) {
+		List<AudioTrack> tracks = new ArrayList<>(tracksCount);
+		for (int i = 0; i < tracksCount; i++) {
+			tracks.add(new AudioTrack(duration(i), trackName(i)));
+		}
+		return tracks;
+	}
+
+	private static String trackName(int i) {
+		return i + ". Allegro assai in A major, track of synthetic playlist";
+	}
+
+	private static String duration(int i) {
+		return String.format("%02d:%02d", i % 60, (i * 7) % 60);
+	}
+}
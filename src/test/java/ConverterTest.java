@@ -2,9 +2,15 @@ import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.DataFormatException;
+import java.util.zip.GZIPOutputStream;
 
 public class ConverterTest {
 
@@ -45,6 +51,38 @@ public class ConverterTest {
 		Assert.assertEquals(expected, tracks);
 	}
 
+	/**
+	 * Correct playlist compressed by gzip.
+	 */
+	@Test
+	public void testReadAudioTracks_gzipPlaylist() throws DataFormatException, IOException {
+		File gz = createGzipPlaylist(Converter.GZIP_EXT);
+
+		List<AudioTrack> tracks = new Converter().readAudioTracks(gz.getAbsolutePath());
+		Assert.assertEquals(new Converter().readAudioTracks(PLAYLIST_CORRECT), tracks);
+		Assert.assertEquals(3, tracks.size());
+	}
+
+	/**
+	 * Extension of gzip file is matched in any case.
+	 */
+	@Test
+	public void testReadAudioTracks_gzipPlaylistUpperCaseExtension() throws DataFormatException, IOException {
+		File gz = createGzipPlaylist(".GZ");
+
+		List<AudioTrack> tracks = new Converter().readAudioTracks(gz.getAbsolutePath());
+		Assert.assertEquals(new Converter().readAudioTracks(PLAYLIST_CORRECT), tracks);
+	}
+
+	private static File createGzipPlaylist(String extension) throws IOException {
+		File gz = File.createTempFile("playlist", extension);
+		gz.deleteOnExit();
+		try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+			out.write(Files.readAllBytes(new File(PLAYLIST_CORRECT).toPath()));
+		}
+		return gz;
+	}
+
 	@Test (expected = DataFormatException.class)
 	public void testReadAudioTracks_wrongDateFormat() throws DataFormatException {
 		new Converter().readAudioTracks(PLAYLIST_WITH_LINE_WRONG_DATE_FORMAT);
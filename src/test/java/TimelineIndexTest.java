@@ -0,0 +1,115 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimelineIndexTest {
+
+	/**
+	 * Playlist with tracks placed in ranges: [15, 70), [70, 159), [159, 610).
+	 */
+	private static TimelineIndex createIndex() {
+		List<AudioTrack> playlist = new ArrayList<>();
+		playlist.add(new AudioTrack("00:55", "Track name 1"));
+		playlist.add(new AudioTrack("01:29", "Track name 2"));
+		playlist.add(new AudioTrack("07:31", "Track name 3"));
+		new Converter().calculateTime(playlist, 15L);
+		return new TimelineIndex(playlist);
+	}
+
+
+	@Test
+	public void testIndexAt_insideTracks() {
+		TimelineIndex index = createIndex();
+		Assert.assertEquals(0, index.indexAt(15));
+		Assert.assertEquals(0, index.indexAt(69));
+		Assert.assertEquals(1, index.indexAt(70));
+		Assert.assertEquals(1, index.indexAt(100));
+		Assert.assertEquals(2, index.indexAt(609));
+	}
+
+	@Test
+	public void testIndexAt_outsidePlaylist() {
+		TimelineIndex index = createIndex();
+		Assert.assertEquals(TimelineIndex.NOT_FOUND, index.indexAt(0));
+		Assert.assertEquals(TimelineIndex.NOT_FOUND, index.indexAt(14));
+		Assert.assertEquals(TimelineIndex.NOT_FOUND, index.indexAt(610));
+	}
+
+	@Test
+	public void testIndexAt_emptyPlaylist() {
+		TimelineIndex index = new TimelineIndex(new ArrayList<AudioTrack>());
+		Assert.assertEquals(TimelineIndex.NOT_FOUND, index.indexAt(0));
+		Assert.assertNull(index.trackAt(0));
+	}
+
+	@Test
+	public void testTrackAt() {
+		Assert.assertEquals("Track name 2", createIndex().trackAt(158).getName());
+	}
+
+	@Test
+	public void testTracksBetween() {
+		TimelineIndex index = createIndex();
+		Assert.assertEquals(3, index.tracksBetween(0, 1000).size());
+		Assert.assertEquals(2, index.tracksBetween(69, 71).size());
+		Assert.assertEquals(1, index.tracksBetween(70, 159).size());
+		Assert.assertEquals("Track name 3", index.tracksBetween(159, 160).get(0).getName());
+		Assert.assertTrue(index.tracksBetween(0, 15).isEmpty());
+		Assert.assertTrue(index.tracksBetween(610, 700).isEmpty());
+		Assert.assertTrue(index.tracksBetween(100, 100).isEmpty());
+	}
+
+	@Test
+	public void testIndicesAt_sortedTimes() {
+		int[] res = createIndex().indicesAt(new long[]{0, 15, 15, 70, 158, 159, 609, 610});
+		Assert.assertArrayEquals(new int[]{-1, 0, 0, 1, 1, 2, 2, -1}, res);
+	}
+
+	/**
+	 * Sparse time positions over long playlist, with tracks of zero duration.
+	 */
+	@Test
+	public void testIndicesAt_sparseTimesInLongPlaylist() {
+		List<AudioTrack> playlist = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			playlist.add(new AudioTrack(i % 7 == 0 ? "00:00" : "01:0" + (i % 10), "Track name " + i));
+		}
+		new Converter().calculateTime(playlist, 0L);
+		TimelineIndex index = new TimelineIndex(playlist);
+
+		long[] times = {0, 1, 65, 64000, 64001, 300000, 599999, 600000, 10000000};
+		int[] res = index.indicesAt(times);
+		for (int t = 0; t < times.length; t++) {
+			Assert.assertEquals(index.indexAt(times[t]), res[t]);
+		}
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void testIndicesAt_unsortedTimes() {
+		createIndex().indicesAt(new long[]{100, 50});
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void testConstructor_overlappingTracks() {
+		List<AudioTrack> playlist = new ArrayList<>();
+		playlist.add(createTrack("Track name 1", 0, 100));
+		playlist.add(createTrack("Track name 2", 50, 150));
+		new TimelineIndex(playlist);
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void testConstructor_trackEndsBeforeStart() {
+		List<AudioTrack> playlist = new ArrayList<>();
+		playlist.add(createTrack("Track name 1", 100, 50));
+		new TimelineIndex(playlist);
+	}
+
+	private static AudioTrack createTrack(String name, long start, long end) {
+		AudioTrack track = new AudioTrack("00:00", name);
+		track.setStartTime(start);
+		track.setEndTime(end);
+		return track;
+	}
+}